@@ -0,0 +1,296 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * 基于加权标签传播的社区发现.
+ * <p>
+ * 把edgeWeights视为无向加权图（u到v与v到u的权重相加，忽略自环），
+ * 转换成压缩稀疏行格式的基本类型数组后，在ForkJoinPool上并行迭代。
+ * 标签更新是异步的：每个节点直接读取邻居的最新标签，并原地写回自己的新标签，
+ * 选择邻居中权重之和最大的标签，平局时优先保留当前标签，其次选择编号较小的标签。
+ * 没有节点改变标签或达到最大迭代次数时停止。
+ * </p>
+ */
+public class CommunityDetection {
+    /**
+     * 默认的最大迭代次数.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 20;
+
+    /**
+     * 社区发现的结果.
+     *
+     * @param words          编号到单词的映射。
+     * @param communities    communities[i]是编号为i的单词所属的社区，社区按大小降序编号。
+     * @param communityCount 社区数量。
+     * @param modularity     划分的模块度。
+     * @param iterations     实际迭代次数。
+     */
+    public record Result(List<String> words, int[] communities, int communityCount,
+                         double modularity, int iterations) {
+        /**
+         * 返回每个单词所属的社区.
+         *
+         * @return 键是单词，值是社区编号。
+         */
+        public Map<String, Integer> toMap() {
+            Map<String, Integer> map = new HashMap<>(words.size() * 2);
+            for (int i = 0; i < words.size(); i++) {
+                map.put(words.get(i), communities[i]);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 压缩稀疏行格式的无向加权图.
+     * 节点i的邻居是targets[offsets[i]]到targets[offsets[i + 1] - 1]，对应权重在weights中.
+     */
+    private record Csr(int[] offsets, int[] targets, double[] weights) {
+        int size() {
+            return offsets.length - 1;
+        }
+    }
+
+    /**
+     * 每个线程复用的标签权重累加数组.
+     */
+    private static final class Scratch {
+        private final double[] labelWeight;
+        private final int[] touched;
+
+        private Scratch(final int n) {
+            labelWeight = new double[n];
+            touched = new int[n];
+        }
+    }
+
+    private CommunityDetection() {
+    }
+
+    /**
+     * 使用默认参数和所有可用处理器进行社区发现.
+     *
+     * @param edgeWeights 边权重映射。
+     * @return 社区发现的结果。
+     */
+    public static Result labelPropagation(final Map<String, Map<String, Integer>> edgeWeights) {
+        return labelPropagation(edgeWeights, DEFAULT_MAX_ITERATIONS,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 使用加权标签传播进行社区发现.
+     *
+     * @param edgeWeights   边权重映射，键是起始单词，值是目的单词到权重的映射。
+     * @param maxIterations 最大迭代次数，必须大于0。
+     * @param parallelism   并行线程数，必须大于0。
+     * @return 社区发现的结果。
+     */
+    public static Result labelPropagation(final Map<String, Map<String, Integer>> edgeWeights,
+                                          final int maxIterations, final int parallelism) {
+        if (maxIterations <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("maxIterations and parallelism must be positive");
+        }
+        List<String> words = new ArrayList<>();
+        Csr csr = toCsr(edgeWeights, words);
+        int n = csr.size();
+
+        int[] labels = new int[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = i;
+            order[i] = i;
+        }
+        // 固定种子打乱访问顺序，避免标签沿编号顺序单向扩散
+        Random rnd = new Random(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        int iterations = 0;
+        try {
+            while (iterations < maxIterations) {
+                iterations++;
+                AtomicInteger changed = new AtomicInteger();
+                pool.submit(() -> IntStream.range(0, n).parallel().forEach(k -> {
+                    int u = order[k];
+                    int best = bestLabel(csr, labels, u, scratch.get());
+                    if (best != labels[u]) {
+                        labels[u] = best;
+                        changed.incrementAndGet();
+                    }
+                })).join();
+                if (changed.get() == 0) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        int communityCount = relabelBySize(labels);
+        return new Result(words, labels, communityCount,
+                modularity(csr, labels, communityCount), iterations);
+    }
+
+    // 把edgeWeights转换为无向的压缩稀疏行格式，并按编号顺序填充words
+    private static Csr toCsr(final Map<String, Map<String, Integer>> edgeWeights,
+                             final List<String> words) {
+        Map<String, Integer> ids = new HashMap<>();
+        int edgeCount = 0;
+        for (Map.Entry<String, Map<String, Integer>> entry : edgeWeights.entrySet()) {
+            idOf(ids, words, entry.getKey());
+            for (String to : entry.getValue().keySet()) {
+                idOf(ids, words, to);
+                edgeCount++;
+            }
+        }
+
+        int n = words.size();
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        double[] weight = new double[edgeCount];
+        int[] offsets = new int[n + 1];
+        int e = 0;
+        for (Map.Entry<String, Map<String, Integer>> entry : edgeWeights.entrySet()) {
+            int u = ids.get(entry.getKey());
+            for (Map.Entry<String, Integer> edge : entry.getValue().entrySet()) {
+                int v = ids.get(edge.getKey());
+                if (u == v) {
+                    continue;
+                }
+                from[e] = u;
+                to[e] = v;
+                weight[e] = edge.getValue();
+                offsets[u + 1]++;
+                offsets[v + 1]++;
+                e++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // 每条有向边在两个端点的邻接表中各出现一次
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < e; i++) {
+            int a = next[from[i]]++;
+            targets[a] = to[i];
+            weights[a] = weight[i];
+            int b = next[to[i]]++;
+            targets[b] = from[i];
+            weights[b] = weight[i];
+        }
+        return new Csr(offsets, targets, weights);
+    }
+
+    private static int idOf(final Map<String, Integer> ids, final List<String> words,
+                            final String word) {
+        Integer id = ids.get(word);
+        if (id == null) {
+            id = words.size();
+            ids.put(word, id);
+            words.add(word);
+        }
+        return id;
+    }
+
+    // 邻居标签中权重之和最大的标签，平局时优先保留当前标签，其次选择编号较小的标签
+    private static int bestLabel(final Csr csr, final int[] labels, final int u,
+                                 final Scratch scratch) {
+        double[] labelWeight = scratch.labelWeight;
+        int[] touched = scratch.touched;
+        int count = 0;
+        for (int a = csr.offsets()[u]; a < csr.offsets()[u + 1]; a++) {
+            int label = labels[csr.targets()[a]];
+            if (labelWeight[label] == 0) {
+                touched[count++] = label;
+            }
+            labelWeight[label] += csr.weights()[a];
+        }
+
+        int current = labels[u];
+        int best = current;
+        double bestWeight = labelWeight[current];
+        for (int i = 0; i < count; i++) {
+            int label = touched[i];
+            double w = labelWeight[label];
+            if (w > bestWeight || (w == bestWeight && best != current
+                    && (label == current || label < best))) {
+                best = label;
+                bestWeight = w;
+            }
+            labelWeight[label] = 0;
+        }
+        return best;
+    }
+
+    // 把标签重新编号为0到k-1，较大的社区编号较小，返回社区数量k
+    private static int relabelBySize(final int[] labels) {
+        int n = labels.length;
+        int[] size = new int[n];
+        for (int label : labels) {
+            size[label]++;
+        }
+        Integer[] used = IntStream.range(0, n).filter(l -> size[l] > 0)
+                .boxed().toArray(Integer[]::new);
+        Arrays.sort(used, (a, b) -> size[a] != size[b]
+                ? Integer.compare(size[b], size[a]) : Integer.compare(a, b));
+        int[] newId = new int[n];
+        for (int i = 0; i < used.length; i++) {
+            newId[used[i]] = i;
+        }
+        for (int i = 0; i < n; i++) {
+            labels[i] = newId[labels[i]];
+        }
+        return used.length;
+    }
+
+    /**
+     * 计算无向加权图上一个划分的模块度.
+     * Q等于各社区内部边权重占总权重的比例，减去随机连边时的期望比例.
+     */
+    private static double modularity(final Csr csr, final int[] communities,
+                                     final int communityCount) {
+        double[] inside = new double[communityCount];
+        double[] total = new double[communityCount];
+        double twiceTotalWeight = 0;
+        for (int u = 0; u < csr.size(); u++) {
+            int c = communities[u];
+            for (int a = csr.offsets()[u]; a < csr.offsets()[u + 1]; a++) {
+                double w = csr.weights()[a];
+                total[c] += w;
+                twiceTotalWeight += w;
+                if (communities[csr.targets()[a]] == c) {
+                    inside[c] += w;
+                }
+            }
+        }
+        if (twiceTotalWeight == 0) {
+            return 0.0;
+        }
+        double q = 0;
+        for (int c = 0; c < communityCount; c++) {
+            double share = total[c] / twiceTotalWeight;
+            q += inside[c] / twiceTotalWeight - share * share;
+        }
+        return q;
+    }
+}
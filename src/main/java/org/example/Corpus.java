@@ -0,0 +1,129 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 由一个文本文件构建的具名语料.
+ * <p>
+ * 每个语料拥有自己的graph、wordFrequency和edgeWeights，
+ * 但其中的单词字符串都来自共享的{@link WordDictionary}。语料构建完成后不再改变，
+ * 可以被多个线程同时查询。
+ * </p>
+ */
+public class Corpus {
+    /**
+     * 语料的名字.
+     */
+    private final String name;
+
+    /**
+     * 表示图中单词之间的有向边.
+     * 键是单词。值是该单词可以指向的单词集合.
+     */
+    private final Map<String, Set<String>> graph = new HashMap<>();
+
+    /**
+     * 存储每个单词出现的频率.
+     */
+    private final Map<String, Integer> wordFrequency = new HashMap<>();
+
+    /**
+     * 存储图中每条边的权重.
+     */
+    private final Map<String, Map<String, Integer>> edgeWeights = new HashMap<>();
+
+    /**
+     * 以共享字典的全局编号建立的图索引，用于最短路径查询.
+     */
+    private final GraphIndex index;
+
+    /**
+     * 从指定的文本文件中读取内容并构建语料.
+     *
+     * @param name       语料的名字。
+     * @param filePath   要读取的文本文件的路径。
+     * @param dictionary 共享的单词字典。
+     * @throws java.io.UncheckedIOException 如果读取文件时发生I/O错误。
+     */
+    public Corpus(final String name, final String filePath, final WordDictionary dictionary) {
+        this.name = name;
+        Main.readTextFileAndBuildGraph(filePath, graph, wordFrequency, edgeWeights, dictionary);
+        index = GraphIndex.of(graph, dictionary);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Set<String>> getGraph() {
+        return Collections.unmodifiableMap(graph);
+    }
+
+    public Map<String, Integer> getWordFrequency() {
+        return Collections.unmodifiableMap(wordFrequency);
+    }
+
+    public Map<String, Map<String, Integer>> getEdgeWeights() {
+        return Collections.unmodifiableMap(edgeWeights);
+    }
+
+    /**
+     * 查询从word1到word2的桥接词，结果文本与{@link Main#queryBridgeWords}一致.
+     *
+     * @param word1 第一个单词。
+     * @param word2 第二个单词。
+     * @return 桥接词查询的结果文本。
+     */
+    public String queryBridgeWords(final String word1, final String word2) {
+        return Main.queryBridgeWords(graph, word1, word2);
+    }
+
+    /**
+     * 计算两个单词之间的最短路径长度，结果文本与{@link Main#calcShortestPath}一致.
+     *
+     * @param word1 起点单词。
+     * @param word2 终点单词。
+     * @return 最短路径长度的结果文本。
+     */
+    public String calcShortestPath(final String word1, final String word2) {
+        if (!graph.containsKey(word1) || !graph.containsKey(word2)) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+        List<String> shortestPath = extractShortestPath(word1, word2);
+        if (shortestPath.size() < 2) {
+            return "No path between " + word1 + " and " + word2 + ".";
+        }
+        return "The shortest path distance from "
+                + word1 + " to " + word2 + " is: "
+                + (shortestPath.size() - 1);
+    }
+
+    /**
+     * 提取从word1到word2的最短路径.
+     *
+     * @param word1 起点单词。
+     * @param word2 终点单词。
+     * @return 路径上的单词，单词不在图中或不可达时为空列表。
+     */
+    public List<String> extractShortestPath(final String word1, final String word2) {
+        Integer index1 = index.id(word1);
+        Integer index2 = index.id(word2);
+        if (index1 == null || index2 == null) {
+            return Collections.emptyList();
+        }
+        return index.path(index.bfs(index1), index2);
+    }
+
+    /**
+     * 对语料进行社区发现.
+     *
+     * @return 键是单词，值是该单词所属的社区编号。
+     */
+    public Map<String, Integer> detectCommunities() {
+        return CommunityDetection.labelPropagation(edgeWeights).toMap();
+    }
+}
@@ -0,0 +1,281 @@
+package org.example;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在同一个进程中管理多个具名语料.
+ * <p>
+ * 语料先以名字和文件路径注册，第一次被查询时才加载。所有语料共享一个{@link WordDictionary}，
+ * 相同的单词只保存一份。已加载的语料按最近使用顺序排列，
+ * 数量超过上限时淘汰最久未使用的语料，也可以用{@link #evictIdle(long)}淘汰长时间未使用的语料；
+ * 被淘汰的语料在下一次查询时重新加载。
+ * 加载在注册表的锁外进行：正在加载的语料用一个占位的Future表示，
+ * 同时查询同一个语料的线程等待这个Future，查询其他语料的线程不受影响；
+ * 只有发布加载结果和淘汰语料时才持有锁。
+ * </p>
+ */
+public class CorpusRegistry {
+    /**
+     * 所有语料共享的单词字典.
+     */
+    private final WordDictionary dictionary;
+
+    /**
+     * 同时保持加载的语料数量上限.
+     */
+    private final int maxLoaded;
+
+    /**
+     * 已注册的语料，键是语料名，值是文件路径.
+     */
+    private final Map<String, String> sources = new HashMap<>();
+
+    /**
+     * 已加载的语料，按访问顺序排列，最久未使用的语料位于最前面.
+     */
+    private final LinkedHashMap<String, Corpus> loaded;
+
+    /**
+     * 正在加载的语料，加载完成或失败后移除.
+     */
+    private final Map<String, CompletableFuture<Corpus>> pending = new HashMap<>();
+
+    /**
+     * 每个已加载语料最近一次被使用的时间，单位为纳秒.
+     */
+    private final Map<String, Long> lastUsed = new HashMap<>();
+
+    private long hits;
+    private long loads;
+    private long evictions;
+
+    /**
+     * 创建一个使用新单词字典的注册表.
+     *
+     * @param maxLoaded 同时保持加载的语料数量上限，必须大于0。
+     */
+    public CorpusRegistry(final int maxLoaded) {
+        this(new WordDictionary(), maxLoaded);
+    }
+
+    /**
+     * 创建一个使用指定单词字典的注册表.
+     *
+     * @param dictionary 共享的单词字典。
+     * @param maxLoaded  同时保持加载的语料数量上限，必须大于0。
+     */
+    public CorpusRegistry(final WordDictionary dictionary, final int maxLoaded) {
+        if (maxLoaded <= 0) {
+            throw new IllegalArgumentException("maxLoaded must be positive: " + maxLoaded);
+        }
+        this.dictionary = dictionary;
+        this.maxLoaded = maxLoaded;
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Corpus> eldest) {
+                if (size() > CorpusRegistry.this.maxLoaded) {
+                    lastUsed.remove(eldest.getKey());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 注册一个语料，此时不加载.
+     * 如果同名语料已加载，则将其卸载，下次查询时从新路径加载.
+     *
+     * @param name     语料名。
+     * @param filePath 文本文件的路径。
+     */
+    public synchronized void register(final String name, final String filePath) {
+        if (!new File(filePath).isFile()) {
+            throw new IllegalArgumentException("No such corpus file: " + filePath);
+        }
+        sources.put(name, filePath);
+        pending.remove(name);
+        loaded.remove(name);
+        lastUsed.remove(name);
+    }
+
+    /**
+     * 注销一个语料并卸载它.
+     *
+     * @param name 语料名。
+     * @return 该语料此前已注册时为true。
+     */
+    public synchronized boolean unregister(final String name) {
+        pending.remove(name);
+        loaded.remove(name);
+        lastUsed.remove(name);
+        return sources.remove(name) != null;
+    }
+
+    /**
+     * 返回指定的语料，尚未加载时先加载.
+     * 其他线程正在加载同一个语料时等待其完成，不会重复加载.
+     *
+     * @param name 语料名。
+     * @return 语料。
+     * @throws java.io.UncheckedIOException 如果读取语料文件时发生I/O错误。
+     */
+    public Corpus get(final String name) {
+        CompletableFuture<Corpus> future;
+        String filePath;
+        boolean owner = false;
+        synchronized (this) {
+            Corpus corpus = loaded.get(name);
+            if (corpus != null) {
+                hits++;
+                lastUsed.put(name, System.nanoTime());
+                return corpus;
+            }
+            filePath = sources.get(name);
+            if (filePath == null) {
+                throw new IllegalArgumentException("Unknown corpus: " + name);
+            }
+            future = pending.get(name);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(name, future);
+                owner = true;
+            }
+        }
+        // 只有放入占位Future的线程负责加载，其他线程等待它的结果
+        return owner ? load(name, filePath, future) : await(future);
+    }
+
+    // 在锁外加载语料，再在锁内发布结果；期间被注销或重新注册时只返回结果而不发布
+    private Corpus load(final String name, final String filePath,
+                        final CompletableFuture<Corpus> future) {
+        Corpus corpus;
+        try {
+            corpus = new Corpus(name, filePath, dictionary);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                pending.remove(name, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            if (pending.remove(name, future)) {
+                loads++;
+                loaded.put(name, corpus);
+                lastUsed.put(name, System.nanoTime());
+            }
+        }
+        future.complete(corpus);
+        return corpus;
+    }
+
+    private static Corpus await(final CompletableFuture<Corpus> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在指定语料中查询从word1到word2的桥接词.
+     *
+     * @param name  语料名。
+     * @param word1 第一个单词。
+     * @param word2 第二个单词。
+     * @return 桥接词查询的结果文本。
+     */
+    public String queryBridgeWords(final String name, final String word1, final String word2) {
+        return get(name).queryBridgeWords(word1, word2);
+    }
+
+    /**
+     * 在指定语料中计算两个单词之间的最短路径长度.
+     *
+     * @param name  语料名。
+     * @param word1 起点单词。
+     * @param word2 终点单词。
+     * @return 最短路径长度的结果文本。
+     */
+    public String calcShortestPath(final String name, final String word1, final String word2) {
+        return get(name).calcShortestPath(word1, word2);
+    }
+
+    /**
+     * 卸载超过指定时间未被使用的语料.
+     *
+     * @param idleMillis 允许的最长空闲时间，单位为毫秒，不能为负数。
+     * @return 被卸载的语料数量。
+     */
+    public synchronized int evictIdle(final long idleMillis) {
+        if (idleMillis < 0) {
+            throw new IllegalArgumentException("idleMillis must not be negative: " + idleMillis);
+        }
+        // 换算为纳秒时超出范围的值取Long.MAX_VALUE，不会溢出
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        long now = System.nanoTime();
+        int count = 0;
+        Iterator<Map.Entry<String, Corpus>> it = loaded.entrySet().iterator();
+        while (it.hasNext()) {
+            String name = it.next().getKey();
+            if (now - lastUsed.get(name) >= idleNanos) {
+                it.remove();
+                lastUsed.remove(name);
+                evictions++;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public WordDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 返回已加载的语料名，最久未使用的在前.
+     *
+     * @return 已加载的语料名。
+     */
+    public synchronized List<String> getLoadedNames() {
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CorpusRegistry: registered=%d, loaded=%d/%d, hits=%d, "
+                        + "loads=%d, evictions=%d, dictionary words=%d",
+                sources.size(), loaded.size(), maxLoaded, hits, loads, evictions,
+                dictionary.size());
+    }
+}
@@ -0,0 +1,224 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 以连续编号表示的图索引.
+ * <p>
+ * 单词的编号来自{@link WordDictionary}，多个语料共享同一个字典时同一单词的全局编号相同。
+ * 为了让广度优先搜索等算法使用按图大小分配的数组，索引再把图中出现过的全局编号
+ * 映射为从0开始的连续局部编号：局部到全局是一个int数组，全局到局部是一个开放寻址的int哈希表，
+ * 两者的大小都只与图中的单词数有关，与共享字典的大小无关。
+ * 索引在创建后不再改变，图重建时需要重新创建索引。
+ * </p>
+ */
+final class GraphIndex {
+    /**
+     * 提供全局编号的单词字典.
+     */
+    private final WordDictionary dictionary;
+
+    /**
+     * 全局编号与局部编号之间的映射.
+     */
+    private final IdTable ids;
+
+    /**
+     * 以局部编号表示的邻接表，adjacency[i]是局部编号为i的单词的所有后继编号.
+     */
+    private final int[][] adjacency;
+
+    /**
+     * 单源最短路径树.
+     * dist[i]是源点到编号i的距离（不可达时为-1），parent[i]是最短路径上i的前驱编号.
+     */
+    record ShortestPathTree(int[] dist, int[] parent) {
+    }
+
+    /**
+     * 按加入顺序为全局编号分配局部编号的表.
+     * 全局到局部用线性探测的开放寻址哈希表，装载因子不超过0.5.
+     */
+    private static final class IdTable {
+        // 槽中存放全局编号加1，0表示空槽
+        private int[] keys;
+        private int[] locals;
+        private int[] globals;
+        private int size;
+
+        private IdTable(final int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+            keys = new int[capacity];
+            locals = new int[capacity];
+            globals = new int[Math.max(expected, 4)];
+        }
+
+        private static int slot(final int global, final int mask) {
+            int h = global * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        // 返回全局编号的局部编号，不在表中时为-1
+        private int get(final int global) {
+            int mask = keys.length - 1;
+            for (int i = slot(global, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == global + 1) {
+                    return locals[i];
+                }
+            }
+            return -1;
+        }
+
+        // 尚未加入的全局编号获得下一个局部编号
+        private void add(final int global) {
+            int mask = keys.length - 1;
+            int i = slot(global, mask);
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == global + 1) {
+                    return;
+                }
+            }
+            keys[i] = global + 1;
+            locals[i] = size;
+            if (size == globals.length) {
+                globals = Arrays.copyOf(globals, size * 2);
+            }
+            globals[size++] = global;
+            if (size * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+        }
+
+        private void rehash(final int capacity) {
+            int[] oldKeys = keys;
+            int[] oldLocals = locals;
+            keys = new int[capacity];
+            locals = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    int i = slot(oldKeys[j] - 1, mask);
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    locals[i] = oldLocals[j];
+                }
+            }
+        }
+
+        // 加入完成后去掉globals多余的容量
+        private void trim() {
+            globals = Arrays.copyOf(globals, size);
+        }
+    }
+
+    private GraphIndex(final WordDictionary dictionary, final IdTable ids,
+                       final int[][] adjacency) {
+        this.dictionary = dictionary;
+        this.ids = ids;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * 为图中的每个单词分配连续编号，并生成以编号表示的邻接表.
+     *
+     * @param graph      已构建完成的图。
+     * @param dictionary 提供全局编号的单词字典，图中尚未收录的单词会被加入。
+     * @return 图的索引。
+     */
+    static GraphIndex of(final Map<String, Set<String>> graph, final WordDictionary dictionary) {
+        // 按出现顺序为起点和终点分配局部编号
+        IdTable ids = new IdTable(graph.size());
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            ids.add(dictionary.idOf(entry.getKey()));
+            for (String neighbor : entry.getValue()) {
+                ids.add(dictionary.idOf(neighbor));
+            }
+        }
+        ids.trim();
+
+        int[][] adj = new int[ids.size][];
+        for (int i = 0; i < adj.length; i++) {
+            Set<String> neighbors = graph.get(dictionary.wordOf(ids.globals[i]));
+            if (neighbors == null) {
+                adj[i] = new int[0];
+                continue;
+            }
+            adj[i] = new int[neighbors.size()];
+            int j = 0;
+            for (String neighbor : neighbors) {
+                adj[i][j++] = ids.get(dictionary.lookup(neighbor));
+            }
+        }
+        return new GraphIndex(dictionary, ids, adj);
+    }
+
+    /**
+     * 返回单词的局部编号.
+     *
+     * @param word 单词。
+     * @return 单词的局部编号，不在图中时为null。
+     */
+    Integer id(final String word) {
+        int global = dictionary.lookup(word);
+        int local = global < 0 ? -1 : ids.get(global);
+        return local < 0 ? null : local;
+    }
+
+    String word(final int id) {
+        return dictionary.wordOf(ids.globals[id]);
+    }
+
+    /**
+     * 从源点出发做广度优先搜索，边的权重视为1.
+     *
+     * @param source 源单词的编号。
+     * @return 源点到所有单词的距离及前驱。
+     */
+    ShortestPathTree bfs(final int source) {
+        int[] dist = new int[adjacency.length];
+        int[] parent = new int[adjacency.length];
+        Arrays.fill(dist, -1);
+        Arrays.fill(parent, -1);
+        int[] queue = new int[adjacency.length];
+        int head = 0;
+        int tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int at = queue[head++];
+            for (int to : adjacency[at]) {
+                if (dist[to] < 0) {
+                    dist[to] = dist[at] + 1;
+                    parent[to] = at;
+                    queue[tail++] = to;
+                }
+            }
+        }
+        return new ShortestPathTree(dist, parent);
+    }
+
+    /**
+     * 沿最短路径树的前驱从终点反向追踪到源点.
+     *
+     * @param tree   最短路径树。
+     * @param target 终点编号。
+     * @return 路径上的单词，不可达时为空列表。
+     */
+    List<String> path(final ShortestPathTree tree, final int target) {
+        List<String> reversed = new ArrayList<>();
+        if (tree.dist()[target] >= 0) {
+            for (int at = target; at != -1; at = tree.parent()[at]) {
+                reversed.add(word(at));
+            }
+        }
+        Collections.reverse(reversed);
+        return Collections.unmodifiableList(reversed);
+    }
+}
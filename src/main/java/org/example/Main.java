@@ -5,15 +5,18 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.Scanner;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Main class for the application.
@@ -43,18 +46,49 @@ public class Main {
      */
     private static final Random random = new Random();
 
+    private static volatile boolean stopRandomWalk = false;
+
     /**
-     * 表示图中顶点的最大数量.
-     * 用于初始化距离矩阵的大小.
+     * 当前加载的图的编号索引.
+     * 包含图中所有出现过的单词（起点和终点），在图构建完成后生成.
      */
-    private static int V;
+    private static GraphIndex index = GraphIndex.of(new HashMap<>(), new WordDictionary());
 
     /**
-     * 存储顶点对之间的最短路径长度.
-     * 二维数组，其中dist[i][j]表示从顶点i到顶点j的最短路径长度.
+     * 图的版本号.
+     * 每次重建图时加1，查询缓存据此判断条目是否过期.
      */
-    private static volatile boolean stopRandomWalk = false;
-    private static int[][] dist;
+    private static long graphVersion = 0;
+
+    /**
+     * 是否启用查询结果缓存.
+     */
+    private static volatile boolean queryCacheEnabled = true;
+
+    /**
+     * 缓存桥接词集合，键由word1和word2的编号组成.
+     */
+    private static final QueryCache<Long, Set<String>> bridgeCache =
+            new QueryCache<>("bridgeWords", 4096);
+
+    /**
+     * 最短路径树缓存占用内存的上限，单位为字节.
+     */
+    private static final long TREE_CACHE_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * 缓存单源最短路径树，键是源单词的编号.
+     * 每棵树占用两个长度为单词数的int数组，因此按字节估算权重，能保存的树的数量随图的大小减少.
+     */
+    private static final QueryCache<Integer, GraphIndex.ShortestPathTree> treeCache =
+            new QueryCache<>("distanceTrees", TREE_CACHE_BYTES,
+                    tree -> 8L * tree.dist().length + 64);
+
+    /**
+     * 缓存提取出的最短路径，键由word1和word2的编号组成.
+     */
+    private static final QueryCache<Long, List<String>> pathCache =
+            new QueryCache<>("shortestPaths", 4096);
 
     /**
      * 程序的主入口点，初始化数据结构，读取文件，并提供用户交互菜单.
@@ -62,21 +96,16 @@ public class Main {
      * 方法首先创建所需的数据结构，包括图、单词频率和边权重。
      * 然后，它读取并处理一个文本文件来构建图。
      * 最后，它进入一个循环，提供用户一个菜单，用户可以从中选择不同的操作，
-     * 如显示有向图、查询桥接词、生成新文本、计算最短路径、执行随机游走或退出程序。
+     * 如显示有向图、查询桥接词、生成新文本、计算最短路径、执行随机游走、
+     * 查看查询缓存统计、社区发现或退出程序。
      * </p>
      *
-     * @param args 命令行参数，当前未使用。
+     * @param args 命令行参数，第一个参数是要读取的文本文件的路径，省略时使用默认路径。
      */
     public static void main(final String[] args) {
-        // 初始化数据结构
-        graph = new HashMap<>();
-        wordFrequency = new HashMap<>();
-        edgeWeights = new HashMap<>();
-
-
-        // 读取文本文件并构建图
-        readTextFileAndBuildGraph("C:\\Users\\三谦\\Desktop\\软件工程\\Lab1\\Lab1\\test\\test1.txt",graph,
-                wordFrequency, edgeWeights);
+        // 初始化数据结构，读取文本文件并构建图
+        loadGraph(args.length > 0 ? args[0]
+                : "C:\\Users\\三谦\\Desktop\\软件工程\\Lab1\\Lab1\\test\\test1.txt");
 
         Scanner scanner = new Scanner(System.in);
         char choice;
@@ -88,8 +117,10 @@ public class Main {
             System.out.println("3. Generate New Text");
             System.out.println("4. Calculate Shortest Path");
             System.out.println("5. Perform Random Walk");
-            System.out.println("6. Exit");
-            System.out.print("Enter your choice (1-6): ");
+            System.out.println("6. Show Query Cache Stats");
+            System.out.println("7. Detect Communities");
+            System.out.println("8. Exit");
+            System.out.print("Enter your choice (1-8): ");
             choice = scanner.next().charAt(0);
             scanner.nextLine(); // Consume newline
 
@@ -142,12 +173,32 @@ public class Main {
                         }
                     }
                 }
-                case '6' -> System.out.println("Exiting program.");
+                case '6' -> System.out.println(getQueryCacheStats());
+                case '7' -> {
+                    CommunityDetection.Result result =
+                            CommunityDetection.labelPropagation(edgeWeights);
+                    System.out.printf("Found %d communities (modularity %.4f, %d iterations).%n",
+                            result.communityCount(), result.modularity(), result.iterations());
+                    Map<String, Integer> communities = result.toMap();
+                    List<List<String>> members = new ArrayList<>();
+                    for (int c = 0; c < result.communityCount(); c++) {
+                        members.add(new ArrayList<>());
+                    }
+                    for (Map.Entry<String, Integer> entry : communities.entrySet()) {
+                        members.get(entry.getValue()).add(entry.getKey());
+                    }
+                    for (int c = 0; c < members.size(); c++) {
+                        System.out.println("Community " + c + ": "
+                                + String.join(", ", members.get(c)));
+                    }
+                    showDirectedGraph(communities);
+                }
+                case '8' -> System.out.println("Exiting program.");
                 default -> System.out.println("Invalid choice. "
                         +
-                        "Please enter a number between 1 and 6.");
+                        "Please enter a number between 1 and 8.");
             }
-        } while (choice != '6');
+        } while (choice != '8');
 
         scanner.close();
     }
@@ -168,15 +219,49 @@ public class Main {
                                                  Map<String, Set<String>> graph,
                                                  Map<String, Integer> wordFrequency,
                                                  Map<String, Map<String, Integer>> edgeWeights) {
+        try {
+            buildGraph(filePath, graph, wordFrequency, edgeWeights, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 从指定的文本文件中读取内容构建图，所有单词都替换为字典中的唯一实例.
+     * 与不带字典的版本不同，读取失败时抛出异常，调用方不会得到一个空图.
+     *
+     * @param filePath   要读取的文本文件的路径。
+     * @param dictionary 共享的单词字典，为null时直接使用分词得到的字符串。
+     * @throws UncheckedIOException 如果读取文件时发生I/O错误。
+     * @see #readTextFileAndBuildGraph(String, Map, Map, Map)
+     */
+    public static void readTextFileAndBuildGraph(final String filePath,
+                                                 Map<String, Set<String>> graph,
+                                                 Map<String, Integer> wordFrequency,
+                                                 Map<String, Map<String, Integer>> edgeWeights,
+                                                 final WordDictionary dictionary) {
+        try {
+            buildGraph(filePath, graph, wordFrequency, edgeWeights, dictionary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + filePath, e);
+        }
+    }
+
+    private static void buildGraph(final String filePath,
+                                   Map<String, Set<String>> graph,
+                                   Map<String, Integer> wordFrequency,
+                                   Map<String, Map<String, Integer>> edgeWeights,
+                                   final WordDictionary dictionary) throws IOException {
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
 
             String line;
             while ((line = br.readLine()) != null) {
-                // 转换为小写，并将非字母字符替换为空格
-                line = line.toLowerCase().replaceAll("[^a-z ]", " ");
-
-                // 分割单词
-                String[] words = line.split("\\s+");
+                String[] words = splitWords(line);
+                if (dictionary != null) {
+                    for (int i = 0; i < words.length; i++) {
+                        words[i] = dictionary.intern(words[i]);
+                    }
+                }
 
                 for (int i = 0; i < words.length - 1; i++) {
                     String currentWord = words[i];
@@ -192,13 +277,83 @@ public class Main {
                     updateWeight(edgeWeights, currentWord, nextWord);
                 }
             }
-            V = graph.size();
-            dist = new int[V][V]; // 确保这部分在图构建完成后进行初始化
+        }
+    }
+
+    /**
+     * 重新创建图、单词频率和边权重，并从指定文件构建图.
+     *
+     * @param filePath 要读取的文本文件的路径。
+     */
+    public static void loadGraph(final String filePath) {
+        graph = new HashMap<>();
+        wordFrequency = new HashMap<>();
+        edgeWeights = new HashMap<>();
+        readTextFileAndBuildGraph(filePath, graph, wordFrequency, edgeWeights);
+        indexGraph(graph); // 确保这部分在图构建完成后进行
+    }
 
+    /**
+     * 返回当前加载的图.
+     *
+     * @return 当前加载的图，尚未加载时为null。
+     */
+    public static Map<String, Set<String>> getGraph() {
+        return graph;
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    /**
+     * 为图中的每个单词分配连续编号，并生成以编号表示的邻接表.
+     * <p>
+     * 图的版本号随之加1，查询缓存中此前的所有条目都将失效。
+     * </p>
+     *
+     * @param graph 刚构建完成的图。
+     */
+    private static void indexGraph(final Map<String, Set<String>> graph) {
+        index = GraphIndex.of(graph, new WordDictionary());
+        graphVersion++;
+    }
+
+    // 将两个单词编号组合成一个缓存键
+    private static long pairKey(final int id1, final int id2) {
+        return ((long) id1 << 32) | (id2 & 0xffffffffL);
+    }
+
+    /**
+     * 启用或关闭查询结果缓存.
+     *
+     * @param enabled 为true时启用缓存。
+     */
+    public static void setQueryCacheEnabled(final boolean enabled) {
+        queryCacheEnabled = enabled;
+    }
+
+    /**
+     * 清空所有查询缓存并重置统计数据.
+     */
+    public static void clearQueryCaches() {
+        bridgeCache.clear();
+        treeCache.clear();
+        pathCache.clear();
+    }
+
+    /**
+     * 返回各查询缓存的命中率、淘汰次数等统计信息.
+     *
+     * @return 每个缓存一行的统计信息。
+     */
+    public static String getQueryCacheStats() {
+        return "Query cache (" + (queryCacheEnabled ? "enabled" : "disabled")
+                + ", graph version " + graphVersion + ")\n"
+                + "  " + bridgeCache + "\n"
+                + "  " + treeCache + "\n"
+                + "  " + pathCache;
+    }
+
+    // 将一行文本转换为小写，非字母字符替换为空格后分割成单词
+    static String[] splitWords(final String line) {
+        return line.toLowerCase().replaceAll("[^a-z ]", " ").split("\\s+");
     }
 
     // 重载 updateWeight 方法以接受 edgeWeights 映射作为参数
@@ -230,6 +385,19 @@ public class Main {
      * @see #edgeWeights
      */
     public static void showDirectedGraph() {
+        showDirectedGraph(null);
+    }
+
+    /**
+     * 显示有向图的可视化，并按社区为节点着色.
+     * <p>
+     * 同一社区的节点使用相同的填充颜色，不同社区的色相按黄金分割比例错开。
+     * </p>
+     *
+     * @param communities 每个单词所属的社区，为null时不着色。
+     * @see #detectCommunities()
+     */
+    public static void showDirectedGraph(final Map<String, Integer> communities) {
         // DOT 文件将被创建在用户目录下
         String dotFilePath = "graph.dot";
         String graphvizPath = "C:\\Users\\三谦\\Desktop\\软件工程\\Lab1"
@@ -245,7 +413,17 @@ public class Main {
             // 添加节点
             for (String node : graph.keySet()) {
                 out.println(
-                        "  \"" + escapeDotString(node) + "\" [shape=circle];");
+                        "  \"" + escapeDotString(node) + "\" [shape=circle"
+                                + communityStyle(communities, node) + "];");
+            }
+            // 只作为终点出现的单词也需要着色
+            if (communities != null) {
+                for (String node : communities.keySet()) {
+                    if (!graph.containsKey(node)) {
+                        out.println("  \"" + escapeDotString(node) + "\" [shape=circle"
+                                + communityStyle(communities, node) + "];");
+                    }
+                }
             }
 
             // 添加边和权重
@@ -283,6 +461,27 @@ public class Main {
         }
     }
 
+    // 按社区编号生成节点的填充颜色，使用Graphviz的"色相 饱和度 亮度"格式
+    private static String communityStyle(
+            final Map<String, Integer> communities, final String node) {
+        if (communities == null || !communities.containsKey(node)) {
+            return "";
+        }
+        double hue = (communities.get(node) * 0.618033988749895) % 1.0;
+        return String.format(Locale.ROOT,
+                ", style=filled, fillcolor=\"%.3f 0.45 1.000\"", hue);
+    }
+
+    /**
+     * 对当前加载的图进行社区发现.
+     *
+     * @return 键是单词，值是该单词所属的社区编号，较大的社区编号较小。
+     * @see CommunityDetection#labelPropagation(Map)
+     */
+    public static Map<String, Integer> detectCommunities() {
+        return CommunityDetection.labelPropagation(edgeWeights).toMap();
+    }
+
     // 转义DOT语言特殊字符
     private static String escapeDotString(final String input) {
         return input.replace("\"", "\\\"");
@@ -296,6 +495,36 @@ public class Main {
             return "No " + word1 + " or " + word2 + " in the graph!";
         }
 
+        // 只有当前加载的图才有编号和版本号，才能使用缓存
+        boolean cacheable = queryCacheEnabled && graph == Main.graph;
+        long version = graphVersion;
+        long key = cacheable
+                ? pairKey(index.id(word1), index.id(word2)) : 0L;
+        Set<String> bridgeWords = cacheable ? bridgeCache.get(version, key) : null;
+        if (bridgeWords == null) {
+            bridgeWords = findBridgeWords(graph, word1, word2);
+            if (cacheable) {
+                bridgeCache.put(version, key, bridgeWords);
+            }
+        }
+
+        return formatBridgeWords(word1, word2, bridgeWords);
+    }
+
+    // 生成桥接词查询的结果文本
+    static String formatBridgeWords(
+            final String word1, final String word2, final Set<String> bridgeWords) {
+        if (bridgeWords.isEmpty()) {
+            return "No bridge words from " + word1 + " to " + word2 + "!";
+        } else {
+            return "The bridge words from " + word1 + " to " + word2 + " are: "
+                    + String.join(", ", bridgeWords);
+        }
+    }
+
+    // 计算从word1到word2的所有桥接词，两个单词都必须在图中
+    private static Set<String> findBridgeWords(
+            final Map<String, Set<String>> graph, final String word1, final String word2) {
         Set<String> bridgeWords = new HashSet<>();
         Set<String> successorsWord1 = graph.get(word1);
         Set<String> predecessorsWord2
@@ -316,12 +545,7 @@ public class Main {
             }
         }
 
-        if (bridgeWords.isEmpty()) {
-            return "No bridge words from " + word1 + " to " + word2 + "!";
-        } else {
-            return "The bridge words from " + word1 + " to " + word2 + " are: "
-                    + String.join(", ", bridgeWords);
-        }
+        return Collections.unmodifiableSet(bridgeWords);
     }
 
 
@@ -375,50 +599,17 @@ public class Main {
             return "No " + word1 + " or " + word2 + " in the graph!";
         }
 
-        // 转换成邻接矩阵，这里假设边的权重为1
-
-        for (int i = 0; i < V; i++) {
-            for (int j = 0; j < V; j++) {
-                dist[i][j] = (i == j) ? 0 : Integer.MAX_VALUE;
-            }
-        }
-
-        // 填充邻接矩阵
-        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
-            String word = entry.getKey();
-            Set<String> neighbors = entry.getValue();
-            for (String neighbor : neighbors) {
-                int index1 = getIndex(word);
-                int index2 = getIndex(neighbor);
-                if (index1 != -1 && index2 != -1) {
-                    dist[index1][index2] = 1;
-                }
-            }
-        }
-
-        // 弗洛伊德算法填充所有顶点对的最短路径
-        for (int k = 0; k < V; k++) {
-            for (int i = 0; i < V; i++) {
-                for (int j = 0; j < V; j++) {
-                    if (dist[i][k] != Integer.MAX_VALUE
-                            && dist[k][j] != Integer.MAX_VALUE
-                            && dist[i][k] + dist[k][j] < dist[i][j]) {
-                        dist[i][j] = dist[i][k] + dist[k][j];
-                    }
-                }
-            }
-        }
-
-        // 找到word1和word2对应的索引
-        int index1 = getIndex(word1);
-        int index2 = getIndex(word2);
+        // 边的权重视为1，从word1出发做广度优先搜索得到单源最短路径树
+        int index1 = index.id(word1);
+        int index2 = index.id(word2);
+        GraphIndex.ShortestPathTree tree = shortestPathTree(index1);
 
         // 如果最短距离是无穷大，说明word1和word2不相连
-        if (dist[index1][index2] == Integer.MAX_VALUE) {
+        if (tree.dist()[index2] < 0) {
             return "No path between " + word1 + " and " + word2 + ".";
         }
         // 提取最短路径
-        List<String> shortestPath = extractShortestPath(word1, word2);
+        List<String> shortestPath = extractShortestPath(index1, index2, tree);
 
         // 检查是否有路径
         if (shortestPath.size() < 2) {
@@ -440,7 +631,7 @@ public class Main {
         // 返回word1和word2之间的最短路径长度
         return "The shortest path distance from "
                 + word1 + " to " + word2 + " is: "
-                + dist[index1][index2];
+                + tree.dist()[index2];
     }
 
 
@@ -531,47 +722,57 @@ public class Main {
 
     public static List<String> extractShortestPath(
             final String word1, final String word2) {
-        List<String> path = new ArrayList<>();
-        Map<String, Integer> indexMap = new HashMap<>();
-
-        // 首先构建一个从索引到单词的映射
-        for (int i = 0; i < V; i++) {
-            String word = (String) graph.keySet().toArray()[i];
-            indexMap.put(word, i);
+        Integer index1 = index.id(word1);
+        Integer index2 = index.id(word2);
+        if (index1 == null || index2 == null) {
+            return Collections.emptyList();
         }
+        return extractShortestPath(index1, index2, null);
+    }
 
-        int index1 = indexMap.get(word1);
-        int index2 = indexMap.get(word2);
+    /**
+     * 提取从index1到index2的最短路径，优先从缓存中读取.
+     *
+     * @param index1 起点编号。
+     * @param index2 终点编号。
+     * @param tree   以index1为源点的最短路径树，为null时按需获取。
+     * @return 路径上的单词，不可达时为空列表。
+     */
+    private static List<String> extractShortestPath(
+            final int index1, final int index2, final GraphIndex.ShortestPathTree tree) {
+        long version = graphVersion;
+        long key = pairKey(index1, index2);
+        List<String> path = queryCacheEnabled ? pathCache.get(version, key) : null;
+        if (path != null) {
+            return path;
+        }
 
-        // 从word1开始，正向追踪最短路径
-        int at = index1;
-        path.add(word1); // 添加起始节点
+        // 从word2沿最短路径树的前驱反向追踪到word1
+        GraphIndex.ShortestPathTree t = tree != null ? tree : shortestPathTree(index1);
+        path = index.path(t, index2);
 
-        while (at != index2) {
-            for (int to = 0; to < V; to++) {
-                if (dist[at][to] == 1
-                        && dist[to][index2] != Integer.MAX_VALUE) {
-                    at = to;
-                    path.add((String) graph.keySet().toArray()[at]);
-                    break;
-                }
-            }
+        if (queryCacheEnabled) {
+            pathCache.put(version, key, path);
         }
-
         return path;
     }
 
-
-    // 辅助函数，用于获取单词在邻接矩阵中的索引
-    private static int getIndex(final String word) {
-        int index = 0;
-        for (String w : graph.keySet()) {
-            if (w.equals(word)) {
-                return index;
+    /**
+     * 获取以指定单词为源点的最短路径树，优先从缓存中读取.
+     *
+     * @param source 源单词的编号。
+     * @return 源点到所有单词的距离及前驱。
+     */
+    private static GraphIndex.ShortestPathTree shortestPathTree(final int source) {
+        long version = graphVersion;
+        GraphIndex.ShortestPathTree tree = queryCacheEnabled ? treeCache.get(version, source) : null;
+        if (tree == null) {
+            tree = index.bfs(source);
+            if (queryCacheEnabled) {
+                treeCache.put(version, source, tree);
             }
-            index++;
         }
-        return -1;
+        return tree;
     }
 
     // 随机游走
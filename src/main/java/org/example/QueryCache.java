@@ -0,0 +1,198 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * 带图版本号的有界LRU查询结果缓存.
+ * <p>
+ * 基于按访问顺序排列的LinkedHashMap实现，条目的总权重超过容量时淘汰最久未使用的条目。
+ * 默认每个条目的权重为1，即容量是条目数；条目大小差别很大时可以指定按字节估算的权重函数。
+ * 每次读写都需要传入当前图的版本号，版本号与缓存记录的不一致时整个缓存失效，
+ * 从而保证图重建之后不会返回过期的结果。
+ * </p>
+ *
+ * @param <K> 缓存键的类型
+ * @param <V> 缓存值的类型
+ */
+public class QueryCache<K, V> {
+    /**
+     * 缓存的名字，仅用于输出统计信息.
+     */
+    private final String name;
+
+    /**
+     * 缓存中所有条目的总权重上限.
+     */
+    private final long capacity;
+
+    /**
+     * 计算单个条目权重的函数.
+     */
+    private final ToLongFunction<V> weigher;
+
+    /**
+     * 当前所有条目的总权重.
+     */
+    private long weight;
+
+    /**
+     * 按访问顺序排列的缓存条目，最久未使用的条目位于最前面.
+     */
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * 当前缓存条目所对应的图版本号.
+     */
+    private long version;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * 创建一个最多保存capacity个条目的缓存.
+     *
+     * @param name     缓存的名字。
+     * @param capacity 最多保存的条目数，必须大于0。
+     */
+    public QueryCache(final String name, final int capacity) {
+        this(name, capacity, value -> 1L);
+    }
+
+    /**
+     * 创建一个按权重限制大小的缓存.
+     * 单个条目的权重超过容量时不会被保留，也不会因此淘汰其他条目.
+     *
+     * @param name     缓存的名字。
+     * @param capacity 所有条目的总权重上限，必须大于0。
+     * @param weigher  计算单个条目权重的函数，返回值不能为负数。
+     */
+    public QueryCache(final String name, final long capacity, final ToLongFunction<V> weigher) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 查询缓存，未命中时返回null.
+     *
+     * @param graphVersion 当前图的版本号。
+     * @param key          缓存键。
+     * @return 缓存的值，未命中时为null。
+     */
+    public synchronized V get(final long graphVersion, final K key) {
+        checkVersion(graphVersion);
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * 写入缓存，必要时淘汰最久未使用的条目.
+     *
+     * @param graphVersion 计算该值时图的版本号。
+     * @param key          缓存键。
+     * @param value        缓存值，不能为null。
+     */
+    public synchronized void put(final long graphVersion, final K key, final V value) {
+        checkVersion(graphVersion);
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > capacity) {
+            // 超过容量的条目不保留，也不为它淘汰其他条目；该键上的旧值已过时，一并丢弃
+            V old = entries.remove(key);
+            if (old != null) {
+                weight -= weigher.applyAsLong(old);
+            }
+            return;
+        }
+        V old = entries.put(key, value);
+        if (old != null) {
+            weight -= weigher.applyAsLong(old);
+        }
+        weight += valueWeight;
+
+        // 从最久未使用的条目开始淘汰，直到总权重不超过容量
+        Iterator<V> it = entries.values().iterator();
+        while (weight > capacity && it.hasNext()) {
+            weight -= weigher.applyAsLong(it.next());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // 版本号变化说明图已被重建，丢弃所有旧条目
+    private void checkVersion(final long graphVersion) {
+        if (graphVersion != version) {
+            invalidations += entries.size();
+            entries.clear();
+            weight = 0;
+            version = graphVersion;
+        }
+    }
+
+    /**
+     * 清空缓存并重置所有统计数据.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * 命中率，尚未有任何查询时为0.
+     *
+     * @return 命中次数占查询总次数的比例。
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "%s: size=%d, weight=%d/%d, hits=%d, misses=%d, hitRate=%.2f%%, "
+                        + "evictions=%d, invalidations=%d",
+                name, entries.size(), weight, capacity, hits, misses,
+                getHitRate() * 100, evictions, invalidations);
+    }
+}
@@ -0,0 +1,392 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 按起始单词哈希分区的有向图.
+ * <p>
+ * 每个分片只保存起始单词归属于自己的边，即graph、wordFrequency和edgeWeights的一个切片，
+ * 所有分片由一组工作线程并行构建和查询。
+ * 桥接词查询从word1的所属分片取得其后继，再把这些候选词分发给各自的所属分片，
+ * 由它们判断候选词是否是word2的前驱；最短路径采用逐层同步的广度优先搜索，
+ * 每一层各分片扩展自己拥有的前沿节点，再把新发现的节点按所属分片交换。
+ * 调用线程从不直接读取分片中的数据，所有读写都以工作线程上的分片任务完成，
+ * 发往所有分片的用{@code scatter}，发往单个分片的用{@code call}。
+ * </p>
+ */
+public class ShardedGraph implements AutoCloseable {
+    /**
+     * 构建图时每批读取的行数.
+     */
+    private static final int BATCH_LINES = 8192;
+
+    /**
+     * 所有分片，下标即分片编号.
+     * 重新构建时整体替换为新的分片，分片数量不变.
+     */
+    private volatile Shard[] shards;
+
+    /**
+     * 执行分片任务的工作线程池，线程数与分片数相同.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * 单个分片保存的图切片.
+     * 只包含起始单词归属于该分片的边.
+     */
+    private static final class Shard {
+        private final Map<String, Set<String>> graph = new HashMap<>();
+        private final Map<String, Integer> wordFrequency = new HashMap<>();
+        private final Map<String, Map<String, Integer>> edgeWeights = new HashMap<>();
+
+        // 加入一批边，edges中相邻两个元素依次是起始单词和目的单词
+        private void addEdges(final List<String> edges) {
+            for (int i = 0; i < edges.size(); i += 2) {
+                String from = edges.get(i);
+                String to = edges.get(i + 1);
+                wordFrequency.merge(from, 1, Integer::sum);
+                graph.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+                edgeWeights.computeIfAbsent(from, k -> new HashMap<>()).merge(to, 1, Integer::sum);
+            }
+        }
+
+        // 扩展本分片拥有的前沿节点，按邻居的所属分片分桶，每个桶中依次是邻居和它的前驱
+        private List<List<String>> expand(final List<String> frontier, final int shardCount) {
+            List<List<String>> buckets = newBuckets(shardCount);
+            for (String word : frontier) {
+                for (String neighbor : graph.getOrDefault(word, Collections.emptySet())) {
+                    List<String> bucket = buckets.get(owner(neighbor, shardCount));
+                    bucket.add(neighbor);
+                    bucket.add(word);
+                }
+            }
+            return buckets;
+        }
+    }
+
+    /**
+     * 创建指定数量的分片及其工作线程.
+     *
+     * @param shardCount 分片数量，必须大于0。
+     */
+    public ShardedGraph(final int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        shards = newShards(shardCount);
+        workers = Executors.newFixedThreadPool(shardCount);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 返回单词所属的分片编号.
+     *
+     * @param word 单词。
+     * @return 分片编号。
+     */
+    public int owner(final String word) {
+        return owner(word, shards.length);
+    }
+
+    private static int owner(final String word, final int shardCount) {
+        return Math.floorMod(word.hashCode(), shardCount);
+    }
+
+    /**
+     * 返回每个分片保存的起始单词数量，用于观察分区是否均衡.
+     *
+     * @return 下标为分片编号的起始单词数量。
+     */
+    public int[] getShardSizes() {
+        Shard[] current = shards;
+        return scatter(i -> current[i].graph.size()).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 从指定的文本文件中读取内容，并行构建所有分片.
+     * <p>
+     * 分词规则与{@link Main#readTextFileAndBuildGraph}相同。文件按批读取，
+     * 每批先由各工作线程分别切分一段文本，并按起始单词的所属分片把边分桶；
+     * 然后每个分片合并所有发给自己的桶。图构建在一组新的分片中，
+     * 读取成功后才替换原有的分片，因此重复调用时图只反映最后一次读取的文件，
+     * 读取失败时原有的图保持不变。
+     * </p>
+     *
+     * @param filePath 要读取的文本文件的路径。
+     * @throws UncheckedIOException 如果读取文件时发生I/O错误。
+     */
+    public void build(final String filePath) {
+        Shard[] fresh = newShards(shards.length);
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            List<String> batch = new ArrayList<>(BATCH_LINES);
+            String line;
+            while ((line = br.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == BATCH_LINES) {
+                    buildBatch(fresh, batch);
+                    batch = new ArrayList<>(BATCH_LINES);
+                }
+            }
+            if (!batch.isEmpty()) {
+                buildBatch(fresh, batch);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + filePath, e);
+        }
+        shards = fresh;
+    }
+
+    private static Shard[] newShards(final int count) {
+        Shard[] created = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new Shard();
+        }
+        return created;
+    }
+
+    private void buildBatch(final Shard[] target, final List<String> lines) {
+        int n = shards.length;
+        // 切分：第i个任务处理第i段文本
+        List<List<List<String>>> outgoing = scatter(i -> {
+            List<List<String>> buckets = newBuckets(n);
+            int from = (int) ((long) lines.size() * i / n);
+            int to = (int) ((long) lines.size() * (i + 1) / n);
+            for (String text : lines.subList(from, to)) {
+                String[] words = Main.splitWords(text);
+                for (int k = 0; k < words.length - 1; k++) {
+                    List<String> bucket = buckets.get(owner(words[k], n));
+                    bucket.add(words[k]);
+                    bucket.add(words[k + 1]);
+                }
+            }
+            return buckets;
+        });
+        // 合并：第j个分片接收所有任务发给它的边
+        scatter(j -> {
+            for (List<List<String>> buckets : outgoing) {
+                target[j].addEdges(buckets.get(j));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 判断单词是否是图中某条边的起始单词.
+     *
+     * @param word 单词。
+     * @return 在图中时为true。
+     */
+    public boolean containsWord(final String word) {
+        return containsWord(shards, word);
+    }
+
+    private boolean containsWord(final Shard[] current, final String word) {
+        int owner = owner(word);
+        return call(owner, () -> current[owner].graph.containsKey(word));
+    }
+
+    /**
+     * 查询从word1到word2的桥接词，结果文本与{@link Main#queryBridgeWords}一致.
+     *
+     * @param word1 第一个单词。
+     * @param word2 第二个单词。
+     * @return 桥接词查询的结果文本。
+     */
+    public String queryBridgeWords(final String word1, final String word2) {
+        Shard[] current = shards;
+        int owner1 = owner(word1);
+        // word1的所属分片返回其后继的副本，不在图中时为null
+        List<String> successors = call(owner1, () -> {
+            Set<String> words = current[owner1].graph.get(word1);
+            return words == null ? null : new ArrayList<>(words);
+        });
+        if (successors == null || !containsWord(current, word2)) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+
+        // 按所属分片分组word1的后继，每个分片只检查自己拥有的候选词是否指向word2
+        int n = current.length;
+        List<List<String>> candidates = newBuckets(n);
+        for (String successor : successors) {
+            candidates.get(owner(successor)).add(successor);
+        }
+        List<List<String>> found = scatter(i -> {
+            List<String> bridges = new ArrayList<>();
+            for (String candidate : candidates.get(i)) {
+                Set<String> next = current[i].graph.get(candidate);
+                if (next != null && next.contains(word2)) {
+                    bridges.add(candidate);
+                }
+            }
+            return bridges;
+        });
+
+        Set<String> bridgeWords = new HashSet<>();
+        for (List<String> bridges : found) {
+            bridgeWords.addAll(bridges);
+        }
+        return Main.formatBridgeWords(word1, word2, bridgeWords);
+    }
+
+    /**
+     * 计算两个单词之间的最短路径长度，结果文本与{@link Main#calcShortestPath}一致.
+     *
+     * @param word1 起点单词。
+     * @param word2 终点单词。
+     * @return 最短路径长度的结果文本。
+     */
+    public String calcShortestPath(final String word1, final String word2) {
+        Shard[] current = shards;
+        if (!containsWord(current, word1) || !containsWord(current, word2)) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+        List<String> shortestPath = extractShortestPath(current, word1, word2);
+        if (shortestPath.size() < 2) {
+            return "No path between " + word1 + " and " + word2 + ".";
+        }
+        return "The shortest path distance from "
+                + word1 + " to " + word2 + " is: "
+                + (shortestPath.size() - 1);
+    }
+
+    /**
+     * 以逐层同步的广度优先搜索提取从word1到word2的最短路径.
+     * <p>
+     * 每个分片只记录自己拥有的单词的访问状态和前驱。每一层先由各分片扩展本地前沿，
+     * 再由各分片接收发给自己的候选节点，过滤掉已访问的节点后形成下一层前沿。
+     * 找到终点后沿前驱逐个询问所属分片，还原出路径。
+     * </p>
+     *
+     * @param word1 起点单词。
+     * @param word2 终点单词。
+     * @return 路径上的单词，单词不在图中或不可达时为空列表。
+     */
+    public List<String> extractShortestPath(final String word1, final String word2) {
+        Shard[] current = shards;
+        if (!containsWord(current, word1) || !containsWord(current, word2)) {
+            return Collections.emptyList();
+        }
+        return extractShortestPath(current, word1, word2);
+    }
+
+    private List<String> extractShortestPath(final Shard[] current,
+                                             final String word1, final String word2) {
+        int n = current.length;
+        // parents.get(i)是分片i在本次查询中的访问状态，只由分片i的任务读写
+        List<Map<String, String>> parents = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            parents.add(new HashMap<>());
+        }
+        int owner1 = owner(word1);
+        call(owner1, () -> parents.get(owner1).put(word1, null));
+        List<List<String>> frontier = newBuckets(n);
+        frontier.get(owner1).add(word1);
+
+        int owner2 = owner(word2);
+        boolean reached = word1.equals(word2);
+        while (!reached && frontier.stream().anyMatch(f -> !f.isEmpty())) {
+            List<List<String>> level = frontier;
+            List<List<List<String>>> outgoing = scatter(i -> current[i].expand(level.get(i), n));
+            frontier = scatter(j -> {
+                Map<String, String> visited = parents.get(j);
+                List<String> next = new ArrayList<>();
+                for (List<List<String>> buckets : outgoing) {
+                    List<String> bucket = buckets.get(j);
+                    for (int k = 0; k < bucket.size(); k += 2) {
+                        String word = bucket.get(k);
+                        if (!visited.containsKey(word)) {
+                            visited.put(word, bucket.get(k + 1));
+                            next.add(word);
+                        }
+                    }
+                }
+                return next;
+            });
+            // 终点只会在被发现的那一层出现在其所属分片返回的新前沿中
+            reached = frontier.get(owner2).contains(word2);
+        }
+        if (!reached) {
+            return Collections.emptyList();
+        }
+
+        List<String> path = new ArrayList<>();
+        for (String at = word2; at != null; ) {
+            path.add(at);
+            String word = at;
+            int owner = owner(word);
+            at = call(owner, () -> parents.get(owner).get(word));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // 在每个分片上并行执行任务，按分片编号返回结果
+    private <T> List<T> scatter(final IntFunction<T> task) {
+        List<Callable<T>> calls = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            calls.add(() -> task.apply(shard));
+        }
+        try {
+            List<T> results = new ArrayList<>(shards.length);
+            for (Future<T> future : workers.invokeAll(calls)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard task failed", e.getCause());
+        }
+    }
+
+    // 在指定分片上执行一个任务并等待其结果
+    private <T> T call(final int shard, final Supplier<T> task) {
+        try {
+            return workers.submit(task::get).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard " + shard, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard task failed", e.getCause());
+        }
+    }
+
+    private static List<List<String>> newBuckets(final int count) {
+        List<List<String>> buckets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+
+    /**
+     * 关闭所有工作线程.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
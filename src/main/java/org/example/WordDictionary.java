@@ -0,0 +1,96 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多个语料共享的全局单词字典.
+ * <p>
+ * 每个单词只保存一个String实例，并分配一个全局唯一、永不改变的编号。
+ * 构建图时用{@link #intern(String)}返回的实例代替分词得到的新字符串，
+ * 各语料的graph、wordFrequency和edgeWeights因此引用同一份单词字符串。
+ * 各语料的{@link GraphIndex}也以这里的编号为键，不再各自保存单词到编号的映射。
+ * 语料被淘汰后单词仍然保留在字典中，以保证编号稳定。
+ * </p>
+ */
+public class WordDictionary {
+    /**
+     * 单词到全局编号的映射，键即为该单词唯一保存的实例.
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * 全局编号到单词的映射，容量不足时在锁内复制扩容.
+     * 新单词先写入数组再放入ids，因此从ids读到的编号在数组中一定可见.
+     */
+    private volatile String[] words = new String[1024];
+
+    /**
+     * 返回与word相等的唯一实例，第一次出现时为其分配编号.
+     * 单词已在字典中时不需要加锁.
+     *
+     * @param word 单词。
+     * @return 字典中保存的单词实例。
+     */
+    public String intern(final String word) {
+        return wordOf(idOf(word));
+    }
+
+    /**
+     * 返回单词的全局编号，第一次出现时为其分配编号.
+     *
+     * @param word 单词。
+     * @return 全局编号。
+     */
+    public int idOf(final String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : add(word);
+    }
+
+    /**
+     * 返回单词的全局编号，不在字典中时不分配编号.
+     *
+     * @param word 单词。
+     * @return 全局编号，不在字典中时为-1。
+     */
+    public int lookup(final String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : -1;
+    }
+
+    private synchronized int add(final String word) {
+        Integer id = ids.get(word);
+        if (id != null) {
+            return id;
+        }
+        int next = ids.size();
+        String[] current = words;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[next] = word;
+        words = current;
+        ids.put(word, next);
+        return next;
+    }
+
+    /**
+     * 返回全局编号对应的单词.
+     *
+     * @param id 由{@link #idOf(String)}或{@link #lookup(String)}返回的全局编号。
+     * @return 单词。
+     */
+    public String wordOf(final int id) {
+        return words[id];
+    }
+
+    /**
+     * 返回字典中的单词数量.
+     *
+     * @return 单词数量。
+     */
+    public int size() {
+        return ids.size();
+    }
+}
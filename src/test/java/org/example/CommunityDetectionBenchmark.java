@@ -0,0 +1,57 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 在合成的社区结构图上测量标签传播的耗时和模块度.
+ * <p>
+ * 图由若干等大的社区组成，每个节点发出固定数量的边，
+ * 其中大部分边指向同一社区内的节点。不属于单元测试，需要手动运行：
+ * {@code java -Xmx4g -cp target/classes:target/test-classes org.example.CommunityDetectionBenchmark [社区数] [社区大小] [出度] [社区内边比例]}
+ * </p>
+ */
+public class CommunityDetectionBenchmark {
+
+    public static void main(final String[] args) {
+        int communities = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int communitySize = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int degree = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        double inside = args.length > 3 ? Double.parseDouble(args[3]) : 0.8;
+
+        int n = communities * communitySize;
+        String[] words = new String[n];
+        for (int i = 0; i < n; i++) {
+            words[i] = QueryCacheBenchmark.wordName(i);
+        }
+        Random rnd = new Random(42);
+        Map<String, Map<String, Integer>> edgeWeights = new HashMap<>(n * 2);
+        long edges = 0;
+        for (int u = 0; u < n; u++) {
+            Map<String, Integer> out = new HashMap<>();
+            for (int d = 0; d < degree; d++) {
+                int v = rnd.nextDouble() < inside
+                        ? (u / communitySize) * communitySize + rnd.nextInt(communitySize)
+                        : rnd.nextInt(n);
+                out.merge(words[v], 1 + rnd.nextInt(3), Integer::sum);
+            }
+            edges += out.size();
+            edgeWeights.put(words[u], out);
+        }
+        System.out.printf("nodes=%d, edges=%d, planted communities=%d, inside ratio=%.2f%n",
+                n, edges, communities, inside);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= Math.max(cores, 1); parallelism *= 2) {
+            long start = System.nanoTime();
+            CommunityDetection.Result result = CommunityDetection.labelPropagation(
+                    edgeWeights, CommunityDetection.DEFAULT_MAX_ITERATIONS, parallelism);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("parallelism=%d: %8.1f ms, iterations=%d, communities=%d, "
+                            + "modularity=%.4f%n",
+                    parallelism, nanos / 1e6, result.iterations(),
+                    result.communityCount(), result.modularity());
+        }
+    }
+}
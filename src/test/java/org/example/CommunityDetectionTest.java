@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class CommunityDetectionTest {
+
+    private static void addEdge(final Map<String, Map<String, Integer>> edgeWeights,
+                                final String from, final String to, final int weight) {
+        edgeWeights.computeIfAbsent(from, k -> new HashMap<>()).put(to, weight);
+    }
+
+    // 测试用例1: 两个由弱边相连的团被分成两个社区
+    @Test
+    public void test1() {
+        Map<String, Map<String, Integer>> edgeWeights = new HashMap<>();
+        String[][] cliques = {{"a", "b", "c", "d"}, {"w", "x", "y", "z"}};
+        for (String[] clique : cliques) {
+            for (String from : clique) {
+                for (String to : clique) {
+                    if (!from.equals(to)) {
+                        addEdge(edgeWeights, from, to, 3);
+                    }
+                }
+            }
+        }
+        addEdge(edgeWeights, "d", "w", 1);
+
+        CommunityDetection.Result result = CommunityDetection.labelPropagation(edgeWeights, 20, 2);
+        Map<String, Integer> communities = result.toMap();
+        assertEquals(2, result.communityCount());
+        assertEquals(8, communities.size());
+        for (String[] clique : cliques) {
+            for (String word : clique) {
+                assertEquals(communities.get(clique[0]), communities.get(word));
+            }
+        }
+        assertNotEquals(communities.get("a"), communities.get("w"));
+        // 两个等大的团，跨社区只有一条权重为1的边
+        assertEquals(0.5 - 1.0 / 73, result.modularity(), 1e-9);
+    }
+
+    // 测试用例2: 当前图中的每个单词都被分配到一个社区
+    @Test
+    public void test2() {
+        Main.loadGraph("test/test1.txt");
+        Map<String, Integer> communities = Main.detectCommunities();
+        Set<String> words = new HashSet<>(Main.getGraph().keySet());
+        for (Set<String> successors : Main.getGraph().values()) {
+            words.addAll(successors);
+        }
+        assertEquals(words, communities.keySet());
+
+        CommunityDetection.Result result = CommunityDetection.labelPropagation(
+                new HashMap<>(Map.of("sun", Map.of("sun", 2))), 20, 1);
+        assertEquals(1, result.communityCount());
+        assertEquals(0.0, result.modularity(), 1e-9);
+    }
+}
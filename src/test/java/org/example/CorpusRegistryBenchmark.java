@@ -0,0 +1,143 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 比较在一个进程中加载多个语料与每个语料使用一个JVM时的内存占用.
+ * <p>
+ * 生成若干词汇高度重叠的合成语料，分别测量：所有语料共享一个单词字典加载在同一个进程中；
+ * 同一个进程中每个语料使用自己的字典；每个语料单独启动一个JVM。
+ * 最后按Zipf分布把查询路由到各语料，观察懒加载和淘汰。
+ * 进程内存读取自/proc/self/status，只在Linux上可用。不属于单元测试，需要手动运行：
+ * {@code java -Xmx2g -cp target/classes:target/test-classes org.example.CorpusRegistryBenchmark [语料数] [词汇量] [每个语料的单词数]}
+ * </p>
+ */
+public class CorpusRegistryBenchmark {
+    /**
+     * 路由到各语料的查询数量.
+     */
+    private static final int QUERIES = 1000;
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length == 2 && "--single".equals(args[0])) {
+            Corpus corpus = new Corpus("single", args[1], new WordDictionary());
+            System.out.println(usedHeap() + " " + residentSetSize() + " "
+                    + corpus.getGraph().size());
+            return;
+        }
+
+        int corpora = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int vocabulary = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        int tokens = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+
+        Random rnd = new Random(42);
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < corpora; i++) {
+            files.add(QueryCacheBenchmark.writeZipfCorpus(vocabulary, tokens, rnd).getPath());
+        }
+        System.out.printf("corpora=%d, vocabulary=%d, tokens per corpus=%d%n",
+                corpora, vocabulary, tokens);
+
+        long baseHeap = usedHeap();
+        CorpusRegistry registry = new CorpusRegistry(corpora);
+        for (int i = 0; i < corpora; i++) {
+            registry.register("c" + i, files.get(i));
+            registry.get("c" + i);
+        }
+        System.out.printf("one process, shared dictionary:   heap %6.1f MB, rss %6.1f MB "
+                        + "(%d distinct words)%n",
+                mb(usedHeap() - baseHeap), mb(residentSetSize()),
+                registry.getDictionary().size());
+        registry = null;
+
+        long separateHeapBase = usedHeap();
+        List<Corpus> separate = new ArrayList<>();
+        for (int i = 0; i < corpora; i++) {
+            separate.add(new Corpus("c" + i, files.get(i), new WordDictionary()));
+        }
+        System.out.printf("one process, per-corpus dictionary: heap %6.1f MB%n",
+                mb(usedHeap() - separateHeapBase));
+        separate = null;
+
+        // 每个语料单独启动一个JVM，堆上限与当前进程相同
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        long heapSum = 0;
+        long rssSum = 0;
+        for (String file : files) {
+            Process process = new ProcessBuilder(java,
+                    "-Xmx" + Runtime.getRuntime().maxMemory() / (1024 * 1024) + "m",
+                    "-cp", System.getProperty("java.class.path"),
+                    CorpusRegistryBenchmark.class.getName(), "--single", file)
+                    .redirectErrorStream(true).start();
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream()))) {
+                String[] fields = in.readLine().trim().split(" ");
+                heapSum += Long.parseLong(fields[0]);
+                rssSum += Long.parseLong(fields[1]);
+            }
+            process.waitFor();
+        }
+        System.out.printf("one JVM per corpus (sum of %d):    heap %6.1f MB, rss %6.1f MB%n",
+                corpora, mb(heapSum), mb(rssSum));
+
+        // 按Zipf分布路由查询，只保留一半的语料常驻
+        int maxLoaded = Math.max(1, corpora / 2);
+        CorpusRegistry lazy = new CorpusRegistry(maxLoaded);
+        for (int i = 0; i < corpora; i++) {
+            lazy.register("c" + i, files.get(i));
+        }
+        QueryCacheBenchmark.ZipfSampler corpusSampler =
+                new QueryCacheBenchmark.ZipfSampler(corpora, 1.2);
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            lazy.queryBridgeWords("c" + corpusSampler.next(rnd),
+                    QueryCacheBenchmark.wordName(rnd.nextInt(100)),
+                    QueryCacheBenchmark.wordName(rnd.nextInt(100)));
+        }
+        System.out.printf("%d Zipf-routed queries with %d resident: %.1f ms, heap %6.1f MB%n%s%n",
+                QUERIES, maxLoaded, (System.nanoTime() - start) / 1e6,
+                mb(usedHeap() - baseHeap), lazy);
+
+        for (String file : files) {
+            Files.deleteIfExists(Path.of(file));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // 读取当前进程的常驻内存，不支持时返回0
+    private static long residentSetSize() {
+        File status = new File("/proc/self/status");
+        if (!status.isFile()) {
+            return 0;
+        }
+        try {
+            for (String line : Files.readAllLines(status.toPath())) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    private static double mb(final long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CorpusRegistryTest {
+
+    private String otherCorpus;
+
+    @Before
+    public void init() throws IOException {
+        File file = File.createTempFile("corpus", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("the sun rose over the quiet sea and the sun was warm");
+        }
+        otherCorpus = file.getPath();
+    }
+
+    // 测试用例1: 查询被路由到指定的语料，结果与单独构建的图一致
+    @Test
+    public void test1() {
+        CorpusRegistry registry = new CorpusRegistry(4);
+        registry.register("poem", "test/test1.txt");
+        registry.register("sea", otherCorpus);
+
+        Main.loadGraph("test/test1.txt");
+        assertEquals(Main.calcShortestPath("sun", "wind"),
+                registry.calcShortestPath("poem", "sun", "wind"));
+        assertEquals("No bridge words from sky to evening!",
+                registry.queryBridgeWords("poem", "sky", "evening"));
+        assertEquals("The bridge words from over to quiet are: the",
+                registry.queryBridgeWords("sea", "over", "quiet"));
+        assertEquals("No sky or evening in the graph!",
+                registry.queryBridgeWords("sea", "sky", "evening"));
+        assertEquals(2, registry.getLoads());
+    }
+
+    // 测试用例2: 不同语料中的相同单词共享同一个字符串实例
+    @Test
+    public void test2() {
+        CorpusRegistry registry = new CorpusRegistry(4);
+        registry.register("poem", "test/test1.txt");
+        registry.register("sea", otherCorpus);
+
+        String fromPoem = findKey(registry.get("poem"), "sun");
+        String fromSea = findKey(registry.get("sea"), "sun");
+        assertSame(fromPoem, fromSea);
+        assertSame(fromPoem, registry.getDictionary().intern(new String("sun")));
+        assertEquals("sun", registry.getDictionary().wordOf(registry.getDictionary().idOf("sun")));
+    }
+
+    private static String findKey(final Corpus corpus, final String word) {
+        for (String key : corpus.getGraph().keySet()) {
+            if (key.equals(word)) {
+                return key;
+            }
+        }
+        throw new AssertionError(word + " not in " + corpus.getName());
+    }
+
+    // 测试用例3: 超过上限时淘汰最久未使用的语料，被淘汰的语料在下次查询时重新加载
+    @Test
+    public void test3() {
+        CorpusRegistry registry = new CorpusRegistry(1);
+        registry.register("poem", "test/test1.txt");
+        registry.register("sea", otherCorpus);
+
+        registry.queryBridgeWords("poem", "sun", "horizon");
+        registry.queryBridgeWords("poem", "sky", "evening");
+        registry.queryBridgeWords("sea", "over", "quiet");
+        assertEquals(List.of("sea"), registry.getLoadedNames());
+        registry.queryBridgeWords("poem", "sun", "horizon");
+        assertEquals(3, registry.getLoads());
+        assertEquals(1, registry.getHits());
+        assertEquals(2, registry.getEvictions());
+
+        assertEquals(0, registry.evictIdle(Long.MAX_VALUE));
+        assertEquals(List.of("poem"), registry.getLoadedNames());
+        assertThrows(IllegalArgumentException.class, () -> registry.evictIdle(-1));
+        assertEquals(1, registry.evictIdle(0));
+        assertTrue(registry.getLoadedNames().isEmpty());
+    }
+
+    // 测试用例4: 未注册的语料和不存在的文件
+    @Test
+    public void test4() {
+        CorpusRegistry registry = new CorpusRegistry(1);
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.register("missing", "test/no-such-file.txt"));
+        registry.register("poem", "test/test1.txt");
+        assertTrue(registry.unregister("poem"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("poem"));
+    }
+
+    // 测试用例5: 重新加载时文件已不可读，抛出异常且不把空语料放入注册表
+    @Test
+    public void test5() {
+        CorpusRegistry registry = new CorpusRegistry(1);
+        registry.register("sea", otherCorpus);
+        registry.get("sea");
+        assertEquals(1, registry.evictIdle(0));
+        assertTrue(new File(otherCorpus).delete());
+
+        assertThrows(UncheckedIOException.class, () -> registry.queryBridgeWords("sea", "over", "quiet"));
+        assertTrue(registry.getLoadedNames().isEmpty());
+        assertEquals(1, registry.getLoads());
+    }
+
+    // 测试用例6: 多个线程同时查询同一个未加载的语料时只加载一次
+    @Test
+    public void test6() throws Exception {
+        CorpusRegistry registry = new CorpusRegistry(2);
+        registry.register("poem", "test/test1.txt");
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Corpus>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return registry.get("poem");
+                }));
+            }
+            start.countDown();
+            Corpus first = results.get(0).get();
+            for (Future<Corpus> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, registry.getLoads());
+        assertEquals(List.of("poem"), registry.getLoadedNames());
+    }
+
+    // 测试用例7: 各语料的索引使用字典的全局编号，查询不在字典中的单词不会为其分配编号
+    @Test
+    public void test7() {
+        CorpusRegistry registry = new CorpusRegistry(2);
+        registry.register("poem", "test/test1.txt");
+        registry.register("sea", otherCorpus);
+        Corpus poem = registry.get("poem");
+        Corpus sea = registry.get("sea");
+        WordDictionary dictionary = registry.getDictionary();
+        int size = dictionary.size();
+
+        assertEquals(List.of("over", "the", "quiet"), sea.extractShortestPath("over", "quiet"));
+        assertEquals(6, poem.extractShortestPath("sun", "wind").size());
+        assertTrue(sea.extractShortestPath("sun", "nowhere").isEmpty());
+        assertEquals(-1, dictionary.lookup("nowhere"));
+        assertEquals(size, dictionary.size());
+        assertEquals(dictionary.lookup("sun"), dictionary.idOf("sun"));
+
+        // 字典扩容后已有的编号和实例不变
+        String sun = dictionary.intern("sun");
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("w" + i, dictionary.intern("w" + i));
+        }
+        assertSame(sun, dictionary.wordOf(dictionary.lookup("sun")));
+
+        // 小图的索引按图的大小编号，与字典大小无关
+        GraphIndex small = GraphIndex.of(Map.of("w4999", Set.of("sun")), dictionary);
+        assertEquals(List.of("w4999", "sun"), small.path(small.bfs(small.id("w4999")), small.id("sun")));
+        assertEquals(2, small.bfs(small.id("sun")).dist().length);
+        assertNull(small.id("wind"));
+    }
+}
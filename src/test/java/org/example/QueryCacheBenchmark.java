@@ -0,0 +1,161 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 比较启用和关闭查询缓存时桥接词与最短路径查询的耗时.
+ * <p>
+ * 先生成一个单词出现频率服从Zipf分布的合成语料并构建图，
+ * 再按Zipf分布抽取热门单词对作为查询负载。
+ * 不属于单元测试，需要手动运行：
+ * {@code java -cp target/classes:target/test-classes org.example.QueryCacheBenchmark [词汇量] [单词数] [查询数]}
+ * </p>
+ */
+public class QueryCacheBenchmark {
+    /**
+     * 候选查询单词对的数量.
+     */
+    private static final int PAIRS = 100000;
+
+    public static void main(final String[] args) throws IOException {
+        int vocabulary = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int tokens = args.length > 1 ? Integer.parseInt(args[1]) : 300000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        Random rnd = new Random(42);
+        File corpus = writeZipfCorpus(vocabulary, tokens, rnd);
+        Main.loadGraph(corpus.getPath());
+        ZipfSampler wordSampler = new ZipfSampler(vocabulary, 1.0);
+
+        // 从语料中出现过的单词里随机组成候选单词对，再按Zipf分布抽取，热门单词对被反复查询
+        List<String> words = new ArrayList<>(Main.getGraph().keySet());
+        words.sort((a, b) -> Integer.compare(wordRank(a), wordRank(b)));
+        String[][] pairs = new String[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            pairs[i] = new String[] {
+                    words.get(wordSampler.next(rnd) % words.size()),
+                    words.get(rnd.nextInt(words.size()))};
+        }
+        ZipfSampler pairSampler = new ZipfSampler(PAIRS, 1.0);
+        String[][] workload = new String[queries][];
+        for (int i = 0; i < queries; i++) {
+            workload[i] = pairs[pairSampler.next(rnd)];
+        }
+
+        System.out.printf("vocabulary=%d, tokens=%d, nodes=%d, queries=%d%n",
+                vocabulary, tokens, words.size(), queries);
+        for (boolean enabled : new boolean[] {false, true}) {
+            Main.setQueryCacheEnabled(enabled);
+            Main.clearQueryCaches();
+            long bridgeNanos = run(workload, true);
+            long pathNanos = run(workload, false);
+            System.out.printf("cache %-8s bridge: %8.1f ms, shortest path: %8.1f ms%n",
+                    enabled ? "enabled" : "disabled", bridgeNanos / 1e6, pathNanos / 1e6);
+            if (enabled) {
+                System.out.println(Main.getQueryCacheStats());
+            }
+        }
+    }
+
+    // calcShortestPath会打印路径，计时期间丢弃标准输出
+    private static long run(final String[][] workload, final boolean bridge) {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            for (String[] pair : workload) {
+                if (bridge) {
+                    Main.queryBridgeWords(Main.getGraph(), pair[0], pair[1]);
+                } else {
+                    Main.calcShortestPath(pair[0], pair[1]);
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    /**
+     * 生成单词出现频率服从Zipf分布的临时语料文件，每行20个单词.
+     *
+     * @param vocabulary 词汇量。
+     * @param tokens     单词总数。
+     * @param rnd        随机数生成器。
+     * @return 退出时自动删除的语料文件。
+     * @throws IOException 如果写文件时发生I/O错误。
+     */
+    static File writeZipfCorpus(final int vocabulary, final int tokens, final Random rnd)
+            throws IOException {
+        File corpus = File.createTempFile("zipf-corpus", ".txt");
+        corpus.deleteOnExit();
+        ZipfSampler wordSampler = new ZipfSampler(vocabulary, 1.0);
+        try (PrintWriter out = new PrintWriter(corpus)) {
+            for (int i = 0; i < tokens; i++) {
+                out.print(wordName(wordSampler.next(rnd)));
+                out.print(i % 20 == 19 ? '\n' : ' ');
+            }
+        }
+        return corpus;
+    }
+
+    // 只含小写字母的单词名，便于通过readTextFileAndBuildGraph的过滤
+    static String wordName(final int rank) {
+        StringBuilder sb = new StringBuilder("w");
+        int n = rank;
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    private static int wordRank(final String word) {
+        int rank = 0;
+        for (int i = word.length() - 1; i >= 1; i--) {
+            rank = rank * 26 + (word.charAt(i) - 'a');
+        }
+        return rank;
+    }
+
+    /**
+     * 按累积分布表做二分查找的Zipf分布采样器.
+     */
+    static final class ZipfSampler {
+        private final double[] cdf;
+
+        ZipfSampler(final int n, final double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int next(final Random rnd) {
+            double u = rnd.nextDouble();
+            int lo = 0;
+            int hi = cdf.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class QueryCacheTest {
+
+    @Before
+    public void init() {
+        Main.setQueryCacheEnabled(true);
+        Main.clearQueryCaches();
+        Main.loadGraph("test/test1.txt");
+    }
+
+    @After
+    public void reset() {
+        Main.setQueryCacheEnabled(true);
+    }
+
+    // 测试用例1: 超过容量时淘汰最久未使用的条目
+    @Test
+    public void test1() {
+        QueryCache<Integer, String> cache = new QueryCache<>("test", 2);
+        cache.put(1, 1, "a");
+        cache.put(1, 2, "b");
+        assertEquals("a", cache.get(1, 1)); // 访问1之后，2成为最久未使用的条目
+        cache.put(1, 3, "c");
+        assertNull(cache.get(1, 2));
+        assertEquals("a", cache.get(1, 1));
+        assertEquals("c", cache.get(1, 3));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.75, cache.getHitRate(), 1e-9);
+    }
+
+    // 测试用例2: 图版本号变化后所有条目失效
+    @Test
+    public void test2() {
+        QueryCache<Integer, String> cache = new QueryCache<>("test", 4);
+        cache.put(1, 1, "a");
+        cache.put(1, 2, "b");
+        assertNull(cache.get(2, 1));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    // 测试用例3: 缓存命中时桥接词结果与未缓存时一致
+    @Test
+    public void test3() {
+        String first = Main.queryBridgeWords(Main.getGraph(), "sun", "horizon");
+        String second = Main.queryBridgeWords(Main.getGraph(), "sun", "horizon");
+        assertEquals(first, second);
+        assertTrue(second.contains("is") && second.contains("was"));
+
+        Main.setQueryCacheEnabled(false);
+        assertEquals("No bridge words from sky to evening!",
+                Main.queryBridgeWords(Main.getGraph(), "sky", "evening"));
+        assertTrue(Main.getQueryCacheStats().contains("bridgeWords: size=1, weight=1/4096, hits=1, misses=1"));
+    }
+
+    // 测试用例4: 最短路径由缓存的最短路径树提取，重新加载图后缓存失效
+    @Test
+    public void test4() {
+        assertEquals("The shortest path distance from sun to wind is: 5",
+                Main.calcShortestPath("sun", "wind"));
+        List<String> path = Main.extractShortestPath("sun", "wind");
+        assertEquals(6, path.size());
+        assertEquals("sun", path.get(0));
+        assertEquals("wind", path.get(5));
+        assertSame(path, Main.extractShortestPath("sun", "wind"));
+
+        Main.loadGraph("test/test1.txt");
+        assertNotSame(path, Main.extractShortestPath("sun", "wind"));
+        assertEquals(path, Main.extractShortestPath("sun", "wind"));
+    }
+
+    // 测试用例5: 用调用方自己的映射构建图不影响当前加载的图的索引和缓存
+    @Test
+    public void test5() throws IOException {
+        assertEquals("The shortest path distance from sun to wind is: 5",
+                Main.calcShortestPath("sun", "wind"));
+
+        File other = File.createTempFile("other", ".txt");
+        other.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(other)) {
+            out.println("wind blows over the sun");
+        }
+        Map<String, Set<String>> graph = new HashMap<>();
+        Main.readTextFileAndBuildGraph(other.getPath(), graph, new HashMap<>(), new HashMap<>());
+
+        assertEquals("The shortest path distance from sun to wind is: 5",
+                Main.calcShortestPath("sun", "wind"));
+        assertEquals("The shortest path distance from sky to breeze is: 9",
+                Main.calcShortestPath("sky", "breeze"));
+    }
+
+    // 测试用例6: 按权重限制大小时，总权重超过容量就淘汰最久未使用的条目
+    @Test
+    public void test6() {
+        QueryCache<Integer, int[]> cache = new QueryCache<>("test", 10, value -> value.length);
+        cache.put(1, 1, new int[4]);
+        cache.put(1, 2, new int[4]);
+        assertEquals(8, cache.getWeight());
+        cache.put(1, 3, new int[4]);
+        assertNull(cache.get(1, 1));
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getWeight());
+        assertEquals(1, cache.getEvictions());
+
+        // 超过容量的单个条目不会被保留，其他条目不受影响
+        cache.put(1, 4, new int[11]);
+        assertNull(cache.get(1, 4));
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getWeight());
+        assertEquals(1, cache.getEvictions());
+
+        // 同一个键上的旧值被丢弃
+        cache.put(1, 2, new int[11]);
+        assertNull(cache.get(1, 2));
+        assertNotNull(cache.get(1, 3));
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.getWeight());
+        assertEquals(1, cache.getEvictions());
+    }
+}
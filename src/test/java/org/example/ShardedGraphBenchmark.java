@@ -0,0 +1,70 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 测量分片数从1增加到N时构建图、桥接词查询和最短路径查询的耗时.
+ * <p>
+ * 不属于单元测试，需要手动运行：
+ * {@code java -cp target/classes:target/test-classes org.example.ShardedGraphBenchmark [最大分片数] [词汇量] [单词数] [查询数]}
+ * </p>
+ */
+public class ShardedGraphBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        int maxShards = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int vocabulary = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        int tokens = args.length > 2 ? Integer.parseInt(args[2]) : 2000000;
+        int queries = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        Random rnd = new Random(42);
+        File corpus = QueryCacheBenchmark.writeZipfCorpus(vocabulary, tokens, rnd);
+
+        System.out.printf("cores=%d, vocabulary=%d, tokens=%d, bridge queries=%d, path queries=%d%n",
+                Runtime.getRuntime().availableProcessors(), vocabulary, tokens, queries, queries / 10);
+        for (int shardCount = 1; shardCount <= maxShards; shardCount *= 2) {
+            try (ShardedGraph sharded = new ShardedGraph(shardCount)) {
+                long start = System.nanoTime();
+                sharded.build(corpus.getPath());
+                long buildNanos = System.nanoTime() - start;
+
+                // 查询负载取自图中的起始单词，每种分片数使用相同的单词对
+                List<String> words = new ArrayList<>();
+                for (int i = 0; i < vocabulary; i++) {
+                    String word = QueryCacheBenchmark.wordName(i);
+                    if (sharded.containsWord(word)) {
+                        words.add(word);
+                    }
+                }
+                Random queryRnd = new Random(7);
+                start = System.nanoTime();
+                for (int i = 0; i < queries; i++) {
+                    sharded.queryBridgeWords(words.get(queryRnd.nextInt(words.size())),
+                            words.get(queryRnd.nextInt(words.size())));
+                }
+                long bridgeNanos = System.nanoTime() - start;
+                // 最短路径需要遍历整个可达子图，查询数取十分之一
+                start = System.nanoTime();
+                for (int i = 0; i < queries / 10; i++) {
+                    sharded.calcShortestPath(words.get(queryRnd.nextInt(words.size())),
+                            words.get(queryRnd.nextInt(words.size())));
+                }
+                long pathNanos = System.nanoTime() - start;
+
+                int[] sizes = sharded.getShardSizes();
+                int largest = 0;
+                for (int size : sizes) {
+                    largest = Math.max(largest, size);
+                }
+                System.out.printf("shards=%d build: %8.1f ms, bridge: %8.1f ms, "
+                                + "shortest path: %8.1f ms, largest shard: %d words%n",
+                        shardCount, buildNanos / 1e6, bridgeNanos / 1e6,
+                        pathNanos / 1e6, largest);
+            }
+        }
+    }
+}
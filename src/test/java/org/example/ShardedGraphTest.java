@@ -0,0 +1,107 @@
+package org.example;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ShardedGraphTest {
+
+    @BeforeClass
+    public static void init() {
+        Main.loadGraph("test/test1.txt");
+    }
+
+    // 桥接词结果的顺序取决于HashSet，按集合比较
+    private static Set<String> bridgeSet(final String result) {
+        if (!result.startsWith("The bridge words")) {
+            return Set.of(result);
+        }
+        return new HashSet<>(Arrays.asList(
+                result.substring(result.indexOf(':') + 2).split(", ")));
+    }
+
+    // 测试用例1: 不同分片数下，所有单词对的桥接词和最短路径长度都与单机版本一致
+    @Test
+    public void test1() {
+        Set<String> words = Main.getGraph().keySet();
+        for (int shardCount : new int[] {1, 3}) {
+            try (ShardedGraph sharded = new ShardedGraph(shardCount)) {
+                sharded.build("test/test1.txt");
+                for (String word1 : words) {
+                    for (String word2 : words) {
+                        assertEquals(bridgeSet(Main.queryBridgeWords(Main.getGraph(), word1, word2)),
+                                bridgeSet(sharded.queryBridgeWords(word1, word2)));
+                        assertEquals(Main.calcShortestPath(word1, word2),
+                                sharded.calcShortestPath(word1, word2));
+                    }
+                }
+            }
+        }
+    }
+
+    // 测试用例2: 最短路径上相邻单词之间都有边
+    @Test
+    public void test2() {
+        try (ShardedGraph sharded = new ShardedGraph(4)) {
+            sharded.build("test/test1.txt");
+            List<String> path = sharded.extractShortestPath("sun", "wind");
+            assertEquals(6, path.size());
+            assertEquals("sun", path.get(0));
+            assertEquals("wind", path.get(5));
+            for (int i = 0; i < path.size() - 1; i++) {
+                assertTrue(Main.getGraph().get(path.get(i)).contains(path.get(i + 1)));
+            }
+        }
+    }
+
+    // 测试用例3: 单词不在图中
+    @Test
+    public void test3() {
+        try (ShardedGraph sharded = new ShardedGraph(2)) {
+            sharded.build("test/test1.txt");
+            assertEquals("No test or abc in the graph!", sharded.queryBridgeWords("test", "abc"));
+            assertEquals("No xyz or horizon in the graph!", sharded.calcShortestPath("xyz", "horizon"));
+            assertTrue(sharded.extractShortestPath("xyz", "horizon").isEmpty());
+        }
+    }
+
+    // 测试用例4: 重复构建时丢弃上一次的边，权重不会累加
+    @Test
+    public void test4() throws IOException {
+        File other = File.createTempFile("other", ".txt");
+        other.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(other)) {
+            out.println("sun is horizon sun");
+        }
+        try (ShardedGraph sharded = new ShardedGraph(3)) {
+            sharded.build("test/test1.txt");
+            sharded.build(other.getPath());
+            assertEquals("The bridge words from sun to horizon are: is",
+                    sharded.queryBridgeWords("sun", "horizon"));
+            assertFalse(sharded.containsWord("breeze"));
+            assertEquals(3, Arrays.stream(sharded.getShardSizes()).sum());
+        }
+    }
+
+    // 测试用例5: 重新构建时文件不可读，抛出异常且保留原有的图
+    @Test
+    public void test5() {
+        try (ShardedGraph sharded = new ShardedGraph(3)) {
+            sharded.build("test/test1.txt");
+            int[] sizes = sharded.getShardSizes();
+            assertThrows(UncheckedIOException.class, () -> sharded.build("test/no-such-file.txt"));
+            assertTrue(sharded.containsWord("sun"));
+            assertArrayEquals(sizes, sharded.getShardSizes());
+            assertEquals(Main.calcShortestPath("sun", "wind"), sharded.calcShortestPath("sun", "wind"));
+        }
+    }
+}